@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.mongodb.sink;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientFactory;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.SimpleMongoDbFactory;
+import org.springframework.util.StringUtils;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoCompressor;
+import com.mongodb.event.ConnectionPoolListenerAdapter;
+import com.mongodb.event.ConnectionPoolWaitQueueEnteredEvent;
+import com.mongodb.event.ConnectionPoolWaitQueueExitedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * A dedicated {@link MongoClient} and {@link MongoDbFactory} for the MongoDB Sink
+ * configured according to the {@link MongoDbSinkProperties.ClientProfile}.
+ * The connection settings are taken from the {@link MongoProperties} and the
+ * {@link MongoClientOptions} of the application, if any;
+ * the pool size, write concern and compression are driven by the sink.
+ * <p>
+ * When a {@link MeterRegistry} is provided, the time spent waiting for
+ * a pooled connection is reported via the {@value #POOL_WAIT_METER} timer.
+ *
+ * @author agent
+ *
+ */
+public class MongoDbSinkClient {
+
+	public static final String POOL_WAIT_METER = "mongodb.sink.pool.wait";
+
+	private final MongoClient mongoClient;
+
+	private final MongoDbFactory mongoDbFactory;
+
+	public MongoDbSinkClient(MongoProperties mongoProperties, MongoClientOptions mongoClientOptions,
+			Environment environment, MongoDbSinkProperties properties, int poolSize, MeterRegistry meterRegistry) {
+
+		MongoDbSinkProperties.ClientProfile clientProfile = properties.getClientProfile();
+		MongoClientOptions.Builder options =
+				(mongoClientOptions != null
+						? MongoClientOptions.builder(mongoClientOptions)
+						: MongoClientOptions.builder())
+						.connectionsPerHost(poolSize)
+						.compressorList(compressors(properties));
+
+		if (clientProfile.getWriteConcern() != null) {
+			options.writeConcern(clientProfile.getWriteConcern());
+		}
+
+		if (meterRegistry != null) {
+			options.addConnectionPoolListener(
+					new PoolWaitListener(
+							Timer.builder(POOL_WAIT_METER)
+									.description("The time the sink waits for a pooled MongoDB connection")
+									.tag("profile", clientProfile.name().toLowerCase())
+									.register(meterRegistry)));
+		}
+
+		this.mongoClient = new MongoClientFactory(mongoProperties, environment).createMongoClient(options.build());
+		this.mongoDbFactory = new SimpleMongoDbFactory(this.mongoClient, mongoProperties.getMongoClientDatabase());
+	}
+
+	public MongoClient getMongoClient() {
+		return this.mongoClient;
+	}
+
+	public MongoDbFactory getMongoDbFactory() {
+		return this.mongoDbFactory;
+	}
+
+	public void close() {
+		this.mongoClient.close();
+	}
+
+	private static List<MongoCompressor> compressors(MongoDbSinkProperties properties) {
+		List<String> names = properties.getCompressors();
+		if (names == null) {
+			return properties.getClientProfile() == MongoDbSinkProperties.ClientProfile.THROUGHPUT
+					? Collections.singletonList(MongoCompressor.createZlibCompressor())
+					: Collections.emptyList();
+		}
+		// The names are validated by the MongoDbSinkProperties; only zlib is supported
+		List<MongoCompressor> compressors = new ArrayList<>();
+		for (String name : names) {
+			if (StringUtils.hasText(name)) {
+				compressors.add(MongoCompressor.createZlibCompressor());
+			}
+		}
+		return compressors;
+	}
+
+	/**
+	 * Every connection check out passes the pool wait queue on the calling thread,
+	 * so the time between entering and exiting the queue is the pool wait time.
+	 */
+	private static final class PoolWaitListener extends ConnectionPoolListenerAdapter {
+
+		private final ThreadLocal<Long> waitStart = new ThreadLocal<>();
+
+		private final Timer timer;
+
+		PoolWaitListener(Timer timer) {
+			this.timer = timer;
+		}
+
+		@Override
+		public void waitQueueEntered(ConnectionPoolWaitQueueEnteredEvent event) {
+			this.waitStart.set(System.nanoTime());
+		}
+
+		@Override
+		public void waitQueueExited(ConnectionPoolWaitQueueExitedEvent event) {
+			Long start = this.waitStart.get();
+			if (start != null) {
+				this.waitStart.remove();
+				this.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,10 @@
 
 package org.springframework.cloud.stream.app.mongodb.sink;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.validation.constraints.AssertTrue;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -23,6 +27,8 @@ import org.springframework.expression.Expression;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 
+import com.mongodb.WriteConcern;
+
 /**
  * @author Artem Bilan
  *
@@ -41,6 +47,30 @@ public class MongoDbSinkProperties {
 	 */
 	private Expression collectionExpression;
 
+	/**
+	 * The MongoDB client profile for the sink: DEFAULT - the auto-configured MongoTemplate,
+	 * THROUGHPUT - a dedicated client with w:1, no journal and compression,
+	 * DURABLE - a dedicated client with w:majority and journal.
+	 */
+	private ClientProfile clientProfile = ClientProfile.DEFAULT;
+
+	/**
+	 * The write concern profile per collection name, overriding the client profile one.
+	 */
+	private Map<String, ClientProfile> collectionProfiles = new HashMap<>();
+
+	/**
+	 * The max connection pool size of the dedicated client;
+	 * defaults to the input consumer concurrency, but not less than 10.
+	 */
+	private Integer maxPoolSize;
+
+	/**
+	 * The wire compressors of the dedicated client (only zlib is supported, blank entries are ignored);
+	 * defaults to zlib for the THROUGHPUT profile and none otherwise.
+	 */
+	private List<String> compressors;
+
 	public void setCollection(String collection) {
 		this.collection = collection;
 	}
@@ -57,9 +87,82 @@ public class MongoDbSinkProperties {
 		return collectionExpression;
 	}
 
+	public ClientProfile getClientProfile() {
+		return this.clientProfile;
+	}
+
+	public void setClientProfile(ClientProfile clientProfile) {
+		this.clientProfile = clientProfile;
+	}
+
+	public Map<String, ClientProfile> getCollectionProfiles() {
+		return this.collectionProfiles;
+	}
+
+	public void setCollectionProfiles(Map<String, ClientProfile> collectionProfiles) {
+		this.collectionProfiles = collectionProfiles;
+	}
+
+	public Integer getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+	public void setMaxPoolSize(Integer maxPoolSize) {
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public List<String> getCompressors() {
+		return this.compressors;
+	}
+
+	public void setCompressors(List<String> compressors) {
+		this.compressors = compressors;
+	}
+
 	@AssertTrue(message = "One of 'collection' or 'collectionExpression' is required")
 	private boolean isValid() {
 		return StringUtils.hasText(this.collection) || this.collectionExpression != null;
 	}
 
+	@AssertTrue(message = "Only 'zlib' is supported for 'compressors'")
+	private boolean isCompressorsValid() {
+		return this.compressors == null
+				|| this.compressors.stream()
+				.filter(StringUtils::hasText)
+				.allMatch(compressor -> "zlib".equalsIgnoreCase(compressor.trim()));
+	}
+
+	public enum ClientProfile {
+
+		/**
+		 * The auto-configured MongoTemplate and its client settings.
+		 */
+		DEFAULT(null),
+
+		/**
+		 * Acknowledged by the primary only, without waiting for the journal.
+		 * Suitable for replayable data.
+		 */
+		THROUGHPUT(WriteConcern.W1.withJournal(false)),
+
+		/**
+		 * Acknowledged by the majority of the replica set members and journaled.
+		 */
+		DURABLE(WriteConcern.MAJORITY.withJournal(true));
+
+		private final WriteConcern writeConcern;
+
+		ClientProfile(WriteConcern writeConcern) {
+			this.writeConcern = writeConcern;
+		}
+
+		/**
+		 * @return the write concern of the profile; {@code null} for the client default.
+		 */
+		public WriteConcern getWriteConcern() {
+			return this.writeConcern;
+		}
+
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2018 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,14 +17,28 @@
 package org.springframework.cloud.stream.app.mongodb.sink;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.stream.annotation.EnableBinding;
 import org.springframework.cloud.stream.config.BindingProperties;
+import org.springframework.cloud.stream.config.BindingServiceProperties;
 import org.springframework.cloud.stream.messaging.Sink;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.MongoDbFactory;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+import org.springframework.data.mongodb.core.WriteResultChecking;
 import org.springframework.expression.Expression;
 import org.springframework.expression.common.LiteralExpression;
 import org.springframework.integration.annotation.ServiceActivator;
@@ -37,17 +51,32 @@ import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.ChannelInterceptor;
 
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * A starter configuration for MongoDB Sink applications.
  * Produces {@link MongoDbStoringMessageHandler} which ingests
  * incoming data into MongoDB Collection.
+ * With a non-default {@link MongoDbSinkProperties.ClientProfile} the data is stored
+ * via a dedicated {@link MongoDbSinkClient}.
  *
  * @author Artem Bilan
  *
  */
 @EnableBinding(Sink.class)
 @EnableConfigurationProperties(MongoDbSinkProperties.class)
-public class MongodbSinkConfiguration {
+public class MongodbSinkConfiguration implements DisposableBean {
+
+	/**
+	 * The floor for the computed pool size: the handler writes synchronously on the consumer thread,
+	 * but binders may run more consumer threads than the configured concurrency.
+	 */
+	private static final int MIN_POOL_SIZE = 10;
+
+	private static final Log logger = LogFactory.getLog(MongodbSinkConfiguration.class);
 
 	@Autowired
 	private MongoDbSinkProperties properties;
@@ -55,10 +84,49 @@ public class MongodbSinkConfiguration {
 	@Autowired
 	private MongoTemplate mongoTemplate;
 
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	private MongoDbSinkClient mongoDbSinkClient;
+
 	@Bean
 	@ServiceActivator(inputChannel = Sink.INPUT)
-	public MessageHandler mongoDbSinkMessageHandler() {
-		MongoDbStoringMessageHandler mongoDbMessageHandler = new MongoDbStoringMessageHandler(this.mongoTemplate);
+	public MessageHandler mongoDbSinkMessageHandler(MongoProperties mongoProperties,
+			ObjectProvider<MongoClientOptions> mongoClientOptions, Environment environment,
+			BindingServiceProperties bindingServiceProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+
+		MongoDbSinkClient sinkClient = null;
+		MongoTemplate sinkMongoTemplate = this.mongoTemplate;
+		if (this.properties.getClientProfile() != MongoDbSinkProperties.ClientProfile.DEFAULT) {
+			Integer poolSize = this.properties.getMaxPoolSize();
+			if (poolSize == null) {
+				int concurrency = bindingServiceProperties.getConsumerProperties(Sink.INPUT).getConcurrency();
+				poolSize = Math.max(concurrency, MIN_POOL_SIZE);
+			}
+			logger.info("The MongoDB sink uses a dedicated client with the '" + this.properties.getClientProfile()
+					+ "' profile and max pool size " + poolSize);
+			sinkClient = new MongoDbSinkClient(mongoProperties, mongoClientOptions.getIfAvailable(), environment,
+					this.properties, poolSize, meterRegistry.getIfUnique());
+			this.mongoDbSinkClient = sinkClient;
+			// The write concern of the profile is the client default, so don't override it on the template
+			sinkMongoTemplate = sinkMongoTemplate(sinkClient.getMongoDbFactory(), false);
+		}
+
+		Map<String, MongoDbSinkProperties.ClientProfile> collectionProfiles = this.properties.getCollectionProfiles();
+		if (!collectionProfiles.isEmpty()) {
+			if (sinkClient == null) {
+				// Don't change the write concern resolution of the shared auto-configured template
+				sinkMongoTemplate = sinkMongoTemplate(this.mongoTemplate.getMongoDbFactory(), true);
+			}
+			WriteConcernResolver writeConcernResolver = writeConcernResolver(sinkMongoTemplate);
+			sinkMongoTemplate.setWriteConcernResolver(action -> {
+				MongoDbSinkProperties.ClientProfile profile = collectionProfiles.get(action.getCollectionName());
+				WriteConcern writeConcern = profile != null ? profile.getWriteConcern() : null;
+				return writeConcern != null ? writeConcern : writeConcernResolver.resolve(action);
+			});
+		}
+
+		MongoDbStoringMessageHandler mongoDbMessageHandler = new MongoDbStoringMessageHandler(sinkMongoTemplate);
 		Expression collectionExpression = this.properties.getCollectionExpression();
 		if (collectionExpression == null) {
 			collectionExpression = new LiteralExpression(this.properties.getCollection());
@@ -67,6 +135,46 @@ public class MongodbSinkConfiguration {
 		return mongoDbMessageHandler;
 	}
 
+	/**
+	 * Create a {@link MongoTemplate} for the provided factory with the converter, write result checking,
+	 * read preference, write concern resolver and application context of the auto-configured one.
+	 * @param mongoDbFactory the factory for the new template.
+	 * @param copyWriteConcern whether to copy the default write concern of the auto-configured template.
+	 * @return the template for the sink.
+	 */
+	private MongoTemplate sinkMongoTemplate(MongoDbFactory mongoDbFactory, boolean copyWriteConcern) {
+		MongoTemplate sinkMongoTemplate = new MongoTemplate(mongoDbFactory, this.mongoTemplate.getConverter());
+		// MongoTemplate doesn't expose getters for these settings
+		DirectFieldAccessor mongoTemplateAccessor = new DirectFieldAccessor(this.mongoTemplate);
+		sinkMongoTemplate.setWriteResultChecking(
+				(WriteResultChecking) mongoTemplateAccessor.getPropertyValue("writeResultChecking"));
+		sinkMongoTemplate.setReadPreference((ReadPreference) mongoTemplateAccessor.getPropertyValue("readPreference"));
+		sinkMongoTemplate.setWriteConcernResolver(writeConcernResolver(this.mongoTemplate));
+		if (copyWriteConcern) {
+			sinkMongoTemplate.setWriteConcern((WriteConcern) mongoTemplateAccessor.getPropertyValue("writeConcern"));
+		}
+		sinkMongoTemplate.setApplicationContext(this.applicationContext);
+		return sinkMongoTemplate;
+	}
+
+	private static WriteConcernResolver writeConcernResolver(MongoTemplate mongoTemplate) {
+		return (WriteConcernResolver) new DirectFieldAccessor(mongoTemplate).getPropertyValue("writeConcernResolver");
+	}
+
+	/**
+	 * @return the dedicated client for a non-default client profile, otherwise {@code null}.
+	 */
+	MongoDbSinkClient getMongoDbSinkClient() {
+		return this.mongoDbSinkClient;
+	}
+
+	@Override
+	public void destroy() {
+		if (this.mongoDbSinkClient != null) {
+			this.mongoDbSinkClient.close();
+		}
+	}
+
 
 	@Bean
 	@GlobalChannelInterceptor(patterns = Sink.INPUT)
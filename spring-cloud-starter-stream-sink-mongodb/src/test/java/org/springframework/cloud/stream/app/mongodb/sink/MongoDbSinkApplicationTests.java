@@ -1,5 +1,5 @@
 /*
- * Copyright 2017-2018 the original author or authors.
+ * Copyright 2017-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,7 +18,10 @@ package org.springframework.cloud.stream.app.mongodb.sink;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -29,14 +32,23 @@ import org.bson.Document;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.boot.test.autoconfigure.data.mongo.AutoConfigureDataMongo;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.cloud.stream.messaging.Sink;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoAction;
+import org.springframework.data.mongodb.core.MongoActionOperation;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.WriteConcernResolver;
+import org.springframework.data.mongodb.core.WriteResultChecking;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 import org.springframework.integration.mongodb.store.MessageDocument;
 import org.springframework.integration.mongodb.support.BinaryToMessageConverter;
@@ -44,11 +56,18 @@ import org.springframework.integration.mongodb.support.MessageToBinaryConverter;
 import org.springframework.integration.support.MessageBuilder;
 import org.springframework.integration.support.MutableMessageBuilder;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.WriteConcern;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 /**
  * @author Artem Bilan
  * @author Chris Schaefer
@@ -68,6 +87,14 @@ public abstract class MongoDbSinkApplicationTests {
 	@Autowired
 	protected MongoDbSinkProperties mongoDbSinkProperties;
 
+	@Autowired
+	@Qualifier("mongoDbSinkMessageHandler")
+	protected MessageHandler mongoDbSinkMessageHandler;
+
+	protected MongoTemplate sinkMongoTemplate() {
+		return (MongoTemplate) new DirectFieldAccessor(this.mongoDbSinkMessageHandler).getPropertyValue("mongoTemplate");
+	}
+
 	@TestPropertySource(properties = "mongodb.collection=testing")
 	static public class CollectionNameTests extends MongoDbSinkApplicationTests {
 
@@ -134,6 +161,184 @@ public abstract class MongoDbSinkApplicationTests {
 
 	}
 
+	@TestPropertySource(properties = {
+			"mongodb.collection=testing3",
+			"mongodb.client-profile=throughput" })
+	static public class ThroughputClientProfileTests extends MongoDbSinkApplicationTests {
+
+		@Autowired
+		private MongodbSinkConfiguration mongodbSinkConfiguration;
+
+		@Test
+		public void test() {
+			MongoDbSinkClient mongoDbSinkClient = this.mongodbSinkConfiguration.getMongoDbSinkClient();
+			MongoTemplate sinkMongoTemplate = sinkMongoTemplate();
+			assertNotSame(this.mongoTemplate, sinkMongoTemplate);
+			assertSame(mongoDbSinkClient.getMongoDbFactory(), sinkMongoTemplate.getMongoDbFactory());
+			assertEquals(WriteConcern.W1.withJournal(false), sinkMongoTemplate.getDb().getWriteConcern());
+			// Not less than the floor for the default consumer concurrency of 1
+			assertEquals(10, mongoDbSinkClient.getMongoClient().getMongoClientOptions().getConnectionsPerHost());
+
+			this.sink.input().send(new GenericMessage<>("{\"my_data\": \"THE DATA\"}"));
+
+			List<Document> result = this.mongoTemplate.findAll(Document.class, "testing3");
+
+			assertEquals(1, result.size());
+			assertEquals("THE DATA", result.get(0).get("my_data"));
+		}
+
+	}
+
+	@TestPropertySource(properties = {
+			"mongodb.collection=testing5",
+			"mongodb.client-profile=throughput",
+			"spring.cloud.stream.bindings.input.consumer.concurrency=12" })
+	static public class ConcurrencyPoolSizeClientProfileTests extends MongoDbSinkApplicationTests {
+
+		@Autowired
+		private MongodbSinkConfiguration mongodbSinkConfiguration;
+
+		@Test
+		public void test() {
+			MongoClientOptions options =
+					this.mongodbSinkConfiguration.getMongoDbSinkClient().getMongoClient().getMongoClientOptions();
+			assertEquals(12, options.getConnectionsPerHost());
+		}
+
+	}
+
+	@TestPropertySource(properties = {
+			"mongodb.collection=testing4",
+			"mongodb.client-profile=throughput",
+			"mongodb.max-pool-size=7",
+			"spring.cloud.stream.bindings.input.consumer.concurrency=3" })
+	static public class MaxPoolSizeClientProfileTests extends MongoDbSinkApplicationTests {
+
+		@Autowired
+		private MongodbSinkConfiguration mongodbSinkConfiguration;
+
+		@Autowired
+		private SimpleMeterRegistry meterRegistry;
+
+		@Test
+		public void testClientOptions() {
+			MongoClientOptions options =
+					this.mongodbSinkConfiguration.getMongoDbSinkClient().getMongoClient().getMongoClientOptions();
+			assertEquals(7, options.getConnectionsPerHost());
+			assertEquals(4321, options.getServerSelectionTimeout());
+		}
+
+		@Test
+		public void testPoolWaitMeter() {
+			this.sink.input().send(new GenericMessage<>("{\"my_data\": \"THE DATA\"}"));
+
+			assertEquals(1, this.mongoTemplate.findAll(Document.class, "testing4").size());
+
+			Timer timer =
+					this.meterRegistry.get(MongoDbSinkClient.POOL_WAIT_METER)
+							.tag("profile", "throughput")
+							.timer();
+			assertTrue(timer.count() > 0);
+		}
+
+		@TestConfiguration
+		static class MeterRegistryConfiguration {
+
+			@Bean
+			public SimpleMeterRegistry simpleMeterRegistry() {
+				return new SimpleMeterRegistry();
+			}
+
+			@Bean
+			public MongoClientOptions mongoClientOptions() {
+				return MongoClientOptions.builder()
+						.serverSelectionTimeout(4321)
+						.build();
+			}
+
+		}
+
+	}
+
+	@TestPropertySource(properties = {
+			"mongodb.collection=events",
+			"mongodb.collection-profiles.events=throughput",
+			"mongodb.collection-profiles.orders=durable" })
+	static public class CollectionProfilesTests extends MongoDbSinkApplicationTests {
+
+		@Autowired
+		private MongodbSinkConfiguration mongodbSinkConfiguration;
+
+		@Autowired
+		private ApplicationContext applicationContext;
+
+		@Test
+		public void test() {
+			assertNull(this.mongodbSinkConfiguration.getMongoDbSinkClient());
+
+			MongoTemplate sinkMongoTemplate = sinkMongoTemplate();
+			assertNotSame(this.mongoTemplate, sinkMongoTemplate);
+			assertSame(this.mongoTemplate.getMongoDbFactory(), sinkMongoTemplate.getMongoDbFactory());
+			assertSame(this.mongoTemplate.getConverter(), sinkMongoTemplate.getConverter());
+
+			// The settings of the auto-configured template are carried over
+			DirectFieldAccessor sinkMongoTemplateAccessor = new DirectFieldAccessor(sinkMongoTemplate);
+			assertEquals(WriteResultChecking.EXCEPTION, sinkMongoTemplateAccessor.getPropertyValue("writeResultChecking"));
+			assertEquals(ReadPreference.secondaryPreferred(), sinkMongoTemplateAccessor.getPropertyValue("readPreference"));
+			assertEquals(WriteConcern.ACKNOWLEDGED, sinkMongoTemplateAccessor.getPropertyValue("writeConcern"));
+			assertSame(this.applicationContext, sinkMongoTemplateAccessor.getPropertyValue("eventPublisher"));
+
+			WriteConcern defaultWriteConcern = WriteConcern.ACKNOWLEDGED;
+			assertEquals(WriteConcern.W1.withJournal(false),
+					resolveWriteConcern(sinkMongoTemplate, "events", defaultWriteConcern));
+			assertEquals(WriteConcern.MAJORITY.withJournal(true),
+					resolveWriteConcern(sinkMongoTemplate, "orders", defaultWriteConcern));
+			assertEquals(defaultWriteConcern, resolveWriteConcern(sinkMongoTemplate, "other", defaultWriteConcern));
+
+			// The shared auto-configured template is not affected
+			assertEquals(defaultWriteConcern, resolveWriteConcern(this.mongoTemplate, "orders", defaultWriteConcern));
+
+			this.sink.input().send(new GenericMessage<>("{\"my_data\": \"THE DATA\"}"));
+
+			assertEquals(1, this.mongoTemplate.findAll(Document.class, "events").size());
+		}
+
+		private static WriteConcern resolveWriteConcern(MongoTemplate mongoTemplate, String collection,
+				WriteConcern defaultWriteConcern) {
+
+			WriteConcernResolver writeConcernResolver =
+					(WriteConcernResolver) new DirectFieldAccessor(mongoTemplate)
+							.getPropertyValue("writeConcernResolver");
+			return writeConcernResolver.resolve(
+					new MongoAction(defaultWriteConcern, MongoActionOperation.INSERT, collection, Document.class,
+							new Document(), null));
+		}
+
+		@TestConfiguration
+		static class MongoTemplateSettingsConfiguration {
+
+			@Bean
+			public static BeanPostProcessor mongoTemplateSettingsPostProcessor() {
+				return new BeanPostProcessor() {
+
+					@Override
+					public Object postProcessAfterInitialization(Object bean, String beanName) {
+						if (bean instanceof MongoTemplate) {
+							MongoTemplate mongoTemplate = (MongoTemplate) bean;
+							mongoTemplate.setWriteResultChecking(WriteResultChecking.EXCEPTION);
+							mongoTemplate.setReadPreference(ReadPreference.secondaryPreferred());
+							mongoTemplate.setWriteConcern(WriteConcern.ACKNOWLEDGED);
+						}
+						return bean;
+					}
+
+				};
+			}
+
+		}
+
+	}
+
 	@SpringBootApplication
 	@EntityScan(basePackageClasses = MessageDocument.class)
 	public static class MongoSinkApplication {
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.mongodb.source;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.spel.support.StandardTypeLocator;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.integration.expression.ExpressionUtils;
+import org.springframework.util.Assert;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Analyzes the plan of the source query via the MongoDB {@code explain} command
+ * on startup and then periodically, reacting to a full collection scan
+ * ({@code COLLSCAN}) according to the {@link MongodbSourceProperties.QueryPlanCheck}.
+ * Optionally creates an index for the query before the first check.
+ * <p>
+ * When a {@link MeterRegistry} is provided, the query shape and its winning plan are
+ * exposed as tags of the {@value #QUERY_PLAN_METER} gauge, which reports {@code 1}
+ * for a collection scan, {@code 0} otherwise and {@code -1} when the last check could not
+ * explain the query. The gauge is replaced when the shape or the plan changes,
+ * so only the latest plan of the collection is reported.
+ *
+ * @author agent
+ *
+ */
+public class MongodbQueryPlanInspector implements SmartLifecycle, BeanFactoryAware {
+
+	public static final String QUERY_PLAN_METER = "mongodb.source.query.plan";
+
+	private static final Log logger = LogFactory.getLog(MongodbQueryPlanInspector.class);
+
+	private static final String COLLSCAN = "COLLSCAN";
+
+	private static final int UNKNOWN_QUERY_PLAN = -1;
+
+	private final MongoTemplate mongoTemplate;
+
+	private final Expression queryExpression;
+
+	private final MongodbSourceProperties properties;
+
+	private final AtomicInteger queryPlanValue = new AtomicInteger();
+
+	private Gauge queryPlanGauge;
+
+	private MeterRegistry meterRegistry;
+
+	private BeanFactory beanFactory;
+
+	private EvaluationContext evaluationContext;
+
+	private ScheduledFuture<?> checkTask;
+
+	private volatile boolean fullReadReported;
+
+	private volatile boolean running;
+
+	public MongodbQueryPlanInspector(MongoTemplate mongoTemplate, Expression queryExpression,
+			MongodbSourceProperties properties) {
+
+		Assert.notNull(mongoTemplate, "'mongoTemplate' must not be null");
+		Assert.notNull(queryExpression, "'queryExpression' must not be null");
+		Assert.notNull(properties, "'properties' must not be null");
+		this.mongoTemplate = mongoTemplate;
+		this.queryExpression = queryExpression;
+		this.properties = properties;
+	}
+
+	public void setMeterRegistry(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	/**
+	 * Start before the polling endpoint, so the index is in place and
+	 * a fail-fast check happens before the first poll.
+	 */
+	@Override
+	public int getPhase() {
+		return Integer.MIN_VALUE;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (this.running) {
+			return;
+		}
+		this.evaluationContext = ExpressionUtils.createStandardEvaluationContext(this.beanFactory);
+		TypeLocator typeLocator = this.evaluationContext.getTypeLocator();
+		if (typeLocator instanceof StandardTypeLocator) {
+			// The same imports as MongoDbMessageSource, so the query expression is evaluated the same way.
+			((StandardTypeLocator) typeLocator).registerImport(Query.class.getPackage().getName());
+		}
+
+		if (this.properties.isCreateIndex()) {
+			createIndex(evaluateQuery());
+		}
+
+		MongodbSourceProperties.QueryPlanCheck queryPlanCheck = this.properties.getQueryPlanCheck();
+		if (queryPlanCheck != MongodbSourceProperties.QueryPlanCheck.NONE) {
+			if (checkQueryPlan() && queryPlanCheck == MongodbSourceProperties.QueryPlanCheck.FAIL) {
+				throw new IllegalStateException("The query for collection '" + this.properties.getCollection()
+						+ "' is a full collection scan (COLLSCAN). "
+						+ (this.properties.isCreateIndex()
+						? "The index created from the query is not used; create an index supporting the query."
+						: "Create an index supporting the query or set 'mongodb.create-index=true'."));
+			}
+			Duration interval = this.properties.getQueryPlanCheckInterval();
+			if (interval != null && !interval.isZero() && !interval.isNegative()) {
+				this.checkTask =
+						IntegrationContextUtils.getTaskScheduler(this.beanFactory)
+								.scheduleWithFixedDelay(this::checkQueryPlan, interval.toMillis());
+			}
+		}
+		this.running = true;
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.checkTask != null) {
+			this.checkTask.cancel(true);
+			this.checkTask = null;
+		}
+		removeQueryPlanGauge();
+		this.running = false;
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	/**
+	 * Explain the current source query and report its plan.
+	 * A query without filter fields and sort is a deliberate full read, so it is not explained.
+	 * @return true if the winning plan is a full collection scan.
+	 */
+	protected boolean checkQueryPlan() {
+		String collection = this.properties.getCollection();
+		Query query;
+		List<String> stages;
+		try {
+			query = evaluateQuery();
+			if (query.getQueryObject().isEmpty() && query.getSortObject().isEmpty()) {
+				if (!this.fullReadReported) {
+					this.fullReadReported = true;
+					logger.info("The query for collection '" + collection
+							+ "' has no filter and sort; the plan is not checked for a full read");
+				}
+				removeQueryPlanGauge();
+				return false;
+			}
+			stages = winningPlanStages(explain(query));
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Cannot explain the query for collection '" + collection + "'", ex);
+			reportUnknownQueryPlan();
+			return false;
+		}
+
+		String shape = queryShape(query);
+		String plan = String.join(" > ", stages);
+		boolean collectionScan = stages.contains(COLLSCAN);
+
+		if (collectionScan) {
+			String message = "The query " + shape + " for collection '" + collection
+					+ "' is a full collection scan: " + plan;
+			if (this.properties.getQueryPlanCheck() == MongodbSourceProperties.QueryPlanCheck.FAIL) {
+				logger.error(message);
+			}
+			else {
+				logger.warn(message);
+			}
+		}
+		else if (logger.isDebugEnabled()) {
+			logger.debug("The query " + shape + " for collection '" + collection + "' plan: " + plan);
+		}
+
+		reportQueryPlan(shape, plan, collectionScan);
+
+		return collectionScan;
+	}
+
+	private synchronized void reportQueryPlan(String shape, String plan, boolean collectionScan) {
+		if (this.meterRegistry == null) {
+			return;
+		}
+		this.queryPlanValue.set(collectionScan ? 1 : 0);
+		if (this.queryPlanGauge == null
+				|| !shape.equals(this.queryPlanGauge.getId().getTag("shape"))
+				|| !plan.equals(this.queryPlanGauge.getId().getTag("plan"))) {
+
+			removeQueryPlanGauge();
+			this.queryPlanGauge =
+					Gauge.builder(QUERY_PLAN_METER, this.queryPlanValue, AtomicInteger::get)
+							.description("Whether the source query plan is a full collection scan")
+							.tag("collection", this.properties.getCollection())
+							.tag("shape", shape)
+							.tag("plan", plan)
+							.register(this.meterRegistry);
+		}
+	}
+
+	private synchronized void reportUnknownQueryPlan() {
+		if (this.queryPlanGauge != null) {
+			this.queryPlanValue.set(UNKNOWN_QUERY_PLAN);
+		}
+	}
+
+	private synchronized void removeQueryPlanGauge() {
+		if (this.queryPlanGauge != null) {
+			this.meterRegistry.remove(this.queryPlanGauge);
+			this.queryPlanGauge = null;
+		}
+	}
+
+	private Query evaluateQuery() {
+		Object value = this.queryExpression.getValue(this.evaluationContext);
+		Assert.state(value instanceof String || value instanceof Query,
+				"'queryExpression' must evaluate to String or org.springframework.data.mongodb.core.query.Query");
+		return value instanceof String ? new BasicQuery((String) value) : (Query) value;
+	}
+
+	private Document explain(Query query) {
+		Document find = new Document("find", this.properties.getCollection())
+				.append("filter", query.getQueryObject());
+		if (!query.getSortObject().isEmpty()) {
+			find.append("sort", query.getSortObject());
+		}
+		if (query.getLimit() > 0) {
+			find.append("limit", query.getLimit());
+		}
+		return this.mongoTemplate.getDb()
+				.runCommand(new Document("explain", find).append("verbosity", "queryPlanner"));
+	}
+
+	private void createIndex(Query query) {
+		Document keys = indexKeys(query);
+		if (keys.isEmpty()) {
+			logger.info("The query for collection '" + this.properties.getCollection()
+					+ "' has no fields to index");
+			return;
+		}
+		String indexName = this.mongoTemplate.indexOps(this.properties.getCollection())
+				.ensureIndex(new CompoundIndexDefinition(keys));
+		logger.info("Ensured index '" + indexName + "' " + keys.toJson()
+				+ " for collection '" + this.properties.getCollection() + "'");
+	}
+
+	/**
+	 * Build index keys in the equality, sort, range order:
+	 * plain (or {@code $eq}) filter fields first, then the sort fields with their direction,
+	 * then fields with other operators, e.g. an incremental {@code $gt} on a timestamp.
+	 * @param query the query to index.
+	 * @return the index keys document.
+	 */
+	static Document indexKeys(Query query) {
+		Document keys = new Document();
+		List<String> rangeFields = new ArrayList<>();
+		for (Map.Entry<String, Object> entry : query.getQueryObject().entrySet()) {
+			String field = entry.getKey();
+			if (field.startsWith("$")) {
+				continue;
+			}
+			Object value = entry.getValue();
+			if (isOperatorDocument(value) && !((Map<?, ?>) value).containsKey("$eq")) {
+				rangeFields.add(field);
+			}
+			else {
+				keys.put(field, 1);
+			}
+		}
+		for (Map.Entry<String, Object> entry : query.getSortObject().entrySet()) {
+			keys.putIfAbsent(entry.getKey(), entry.getValue());
+		}
+		for (String field : rangeFields) {
+			keys.putIfAbsent(field, 1);
+		}
+		return keys;
+	}
+
+	/**
+	 * Render the query filter and sort with all the values replaced by {@code ?}.
+	 * @param query the query to render.
+	 * @return the query shape.
+	 */
+	static String queryShape(Query query) {
+		Document shape = new Document("filter", shapeOf(query.getQueryObject()));
+		if (!query.getSortObject().isEmpty()) {
+			shape.append("sort", query.getSortObject());
+		}
+		return shape.toJson();
+	}
+
+	private static Object shapeOf(Object value) {
+		if (value instanceof Map) {
+			Document shape = new Document();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				shape.put(entry.getKey().toString(), shapeOf(entry.getValue()));
+			}
+			return shape;
+		}
+		else if (value instanceof List && !((List<?>) value).isEmpty() && ((List<?>) value).get(0) instanceof Map) {
+			List<Object> shape = new ArrayList<>();
+			for (Object item : (List<?>) value) {
+				shape.add(shapeOf(item));
+			}
+			return shape;
+		}
+		else {
+			return "?";
+		}
+	}
+
+	private static boolean isOperatorDocument(Object value) {
+		if (value instanceof Map && !((Map<?, ?>) value).isEmpty()) {
+			Object firstKey = ((Map<?, ?>) value).keySet().iterator().next();
+			return firstKey.toString().startsWith("$");
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<String> winningPlanStages(Document explain) {
+		List<String> stages = new ArrayList<>();
+		Map<String, Object> queryPlanner = (Map<String, Object>) explain.get("queryPlanner");
+		if (queryPlanner != null) {
+			collectStages((Map<String, Object>) queryPlanner.get("winningPlan"), stages);
+		}
+		return stages;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void collectStages(Map<String, Object> plan, List<String> stages) {
+		if (plan == null) {
+			return;
+		}
+		Object stage = plan.get("stage");
+		if (stage != null) {
+			stages.add(stage.toString());
+		}
+		collectStages((Map<String, Object>) plan.get("inputStage"), stages);
+		Object inputStages = plan.get("inputStages");
+		if (inputStages instanceof List) {
+			for (Object inputStage : (List<?>) inputStages) {
+				collectStages((Map<String, Object>) inputStage, stages);
+			}
+		}
+		Object shards = plan.get("shards");
+		if (shards instanceof List) {
+			for (Object shard : (List<?>) shards) {
+				collectStages((Map<String, Object>) ((Map<String, Object>) shard).get("winningPlan"), stages);
+			}
+		}
+	}
+
+}
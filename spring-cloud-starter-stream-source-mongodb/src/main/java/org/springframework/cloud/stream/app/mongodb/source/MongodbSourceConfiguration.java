@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2017 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 
 package org.springframework.cloud.stream.app.mongodb.source;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -34,10 +35,13 @@ import org.springframework.integration.dsl.IntegrationFlows;
 import org.springframework.integration.mongodb.inbound.MongoDbMessageSource;
 import org.springframework.messaging.MessageChannel;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * A starter configuration for MongoDB Source applications.
  * Produces {@link MongoDbMessageSource} which polls collection
  * with the query after startup according to the polling properties.
+ * The query plan is checked by the {@link MongodbQueryPlanInspector}.
  *
  * @author Adam Zwickey
  * @author Artem Bilan
@@ -68,19 +72,30 @@ public class MongodbSourceConfiguration {
 		return flow.get();
 	}
 
+	@Bean
+	public MongodbQueryPlanInspector mongodbQueryPlanInspector(ObjectProvider<MeterRegistry> meterRegistry) {
+		MongodbQueryPlanInspector queryPlanInspector =
+				new MongodbQueryPlanInspector(this.mongoTemplate, queryExpression(), this.config);
+		queryPlanInspector.setMeterRegistry(meterRegistry.getIfUnique());
+		return queryPlanInspector;
+	}
+
 	/**
 	 * The inheritors can consider to override this method for their purpose or just adjust options
 	 * for the returned instance
 	 * @return a {@link MongoDbMessageSource} instance
 	 */
 	protected MongoDbMessageSource mongoSource() {
-		Expression queryExpression = (this.config.getQueryExpression() != null
-				? this.config.getQueryExpression()
-				: new LiteralExpression(this.config.getQuery()));
-		MongoDbMessageSource mongoDbMessageSource = new MongoDbMessageSource(this.mongoTemplate, queryExpression);
+		MongoDbMessageSource mongoDbMessageSource = new MongoDbMessageSource(this.mongoTemplate, queryExpression());
 		mongoDbMessageSource.setCollectionNameExpression(new LiteralExpression(this.config.getCollection()));
 		mongoDbMessageSource.setEntityClass(String.class);
 		return mongoDbMessageSource;
 	}
 
+	private Expression queryExpression() {
+		return (this.config.getQueryExpression() != null
+				? this.config.getQueryExpression()
+				: new LiteralExpression(this.config.getQuery()));
+	}
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2018 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,8 @@
 
 package org.springframework.cloud.stream.app.mongodb.source;
 
+import java.time.Duration;
+
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 
@@ -53,6 +55,22 @@ public class MongodbSourceProperties {
 	 */
 	private boolean split = true;
 
+	/**
+	 * How to react to a query plan which is a full collection scan (COLLSCAN):
+	 * NONE - do not analyze the plan, WARN - log a warning, FAIL - fail the startup.
+	 */
+	private QueryPlanCheck queryPlanCheck = QueryPlanCheck.WARN;
+
+	/**
+	 * The interval to re-check the query plan after startup; zero disables periodic checks.
+	 */
+	private Duration queryPlanCheckInterval = Duration.ofMinutes(10);
+
+	/**
+	 * Whether to create an index for the query equality, sort and range fields on startup.
+	 */
+	private boolean createIndex;
+
 	@NotEmpty(message = "Query is required")
 	public String getQuery() {
 		return query;
@@ -87,4 +105,47 @@ public class MongodbSourceProperties {
 		this.split = split;
 	}
 
+	public QueryPlanCheck getQueryPlanCheck() {
+		return this.queryPlanCheck;
+	}
+
+	public void setQueryPlanCheck(QueryPlanCheck queryPlanCheck) {
+		this.queryPlanCheck = queryPlanCheck;
+	}
+
+	public Duration getQueryPlanCheckInterval() {
+		return this.queryPlanCheckInterval;
+	}
+
+	public void setQueryPlanCheckInterval(Duration queryPlanCheckInterval) {
+		this.queryPlanCheckInterval = queryPlanCheckInterval;
+	}
+
+	public boolean isCreateIndex() {
+		return this.createIndex;
+	}
+
+	public void setCreateIndex(boolean createIndex) {
+		this.createIndex = createIndex;
+	}
+
+	public enum QueryPlanCheck {
+
+		/**
+		 * Do not analyze the query plan.
+		 */
+		NONE,
+
+		/**
+		 * Log a warning when the query plan is a collection scan.
+		 */
+		WARN,
+
+		/**
+		 * Fail the application startup when the query plan is a collection scan.
+		 */
+		FAIL
+
+	}
+
 }
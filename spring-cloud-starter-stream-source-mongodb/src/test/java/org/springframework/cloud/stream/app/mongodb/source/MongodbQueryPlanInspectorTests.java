@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.stream.app.mongodb.source;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import org.bson.Document;
+import org.junit.Test;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * @author agent
+ */
+public class MongodbQueryPlanInspectorTests {
+
+	@Test
+	public void testIndexKeysEqualitySortRange() {
+		Query query =
+				new BasicQuery("{ 'ts': { '$gt': 100 }, 'type': 'order', 'status': { '$eq': 'new' } }")
+						.with(Sort.by(Sort.Direction.DESC, "priority"));
+
+		Document keys = MongodbQueryPlanInspector.indexKeys(query);
+
+		assertThat(keys.keySet(), contains("type", "status", "priority", "ts"));
+		assertThat(keys, equalTo(
+				new Document("type", 1)
+						.append("status", 1)
+						.append("priority", -1)
+						.append("ts", 1)));
+	}
+
+	@Test
+	public void testIndexKeysIncrementalSortField() {
+		Query query =
+				new BasicQuery("{ 'ts': { '$gt': 100 }, 'type': 'order', '$or': [ { 'a': 1 }, { 'b': 2 } ] }")
+						.with(Sort.by(Sort.Direction.ASC, "ts"));
+
+		Document keys = MongodbQueryPlanInspector.indexKeys(query);
+
+		assertThat(keys.keySet(), contains("type", "ts"));
+	}
+
+	@Test
+	public void testIndexKeysNoFields() {
+		assertThat(MongodbQueryPlanInspector.indexKeys(new BasicQuery("{ }")).isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void testQueryShape() {
+		Query query =
+				new BasicQuery("{ 'greeting': 'hola', 'ts': { '$gt': 100 }, '$or': [ { 'name': 'foo' } ] }")
+						.with(Sort.by(Sort.Direction.ASC, "name"));
+
+		String shape = MongodbQueryPlanInspector.queryShape(query);
+
+		assertThat(shape, containsString("\"greeting\""));
+		assertThat(shape, containsString("\"$gt\""));
+		assertThat(shape, containsString("\"$or\""));
+		assertThat(shape, containsString("\"sort\""));
+		assertThat(shape, not(containsString("hola")));
+		assertThat(shape, not(containsString("100")));
+		assertThat(shape, not(containsString("foo")));
+	}
+
+}
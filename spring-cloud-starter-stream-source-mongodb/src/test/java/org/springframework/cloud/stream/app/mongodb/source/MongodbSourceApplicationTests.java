@@ -1,5 +1,5 @@
 /*
- * Copyright 2016-2018 the original author or authors.
+ * Copyright 2016-2026 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,14 +17,22 @@
 package org.springframework.cloud.stream.app.mongodb.source;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.bson.Document;
@@ -32,11 +40,18 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.stream.messaging.Source;
 import org.springframework.cloud.stream.test.binder.MessageCollector;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.integration.expression.SupplierExpression;
 import org.springframework.messaging.Message;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.TestPropertySource;
@@ -45,6 +60,9 @@ import org.springframework.test.context.junit4.SpringRunner;
 import com.mongodb.MongoClient;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 /**
  * @author Adam Zwickey
@@ -177,6 +195,150 @@ public abstract class MongodbSourceApplicationTests {
 
 	}
 
+	@TestPropertySource(properties = {
+			"mongodb.query-expression=new BasicQuery('{ ''greeting'': ''hola'' }')" +
+					".with(new org.springframework.data.domain.Sort('name'))",
+			"mongodb.collection=indexTesting",
+			"mongodb.create-index=true",
+			"mongodb.query-plan-check=FAIL",
+			"trigger.fixedDelay=1" })
+	public static class CreateIndexTests extends MongodbSourceApplicationTests {
+
+		@Autowired
+		private MongodbQueryPlanInspector queryPlanInspector;
+
+		@Test
+		public void test() throws InterruptedException {
+			MongoCollection<Document> collection = this.mongo.getDatabase("test").getCollection("indexTesting");
+			collection.insertOne(
+					new Document("greeting", "hello")
+							.append("name", "foo"));
+			collection.insertOne(
+					new Document("greeting", "hola")
+							.append("name", "bar"));
+
+			List<Document> indexes = collection.listIndexes().into(new ArrayList<>());
+			List<Object> indexKeys = new ArrayList<>();
+			for (Document index : indexes) {
+				indexKeys.add(index.get("key"));
+			}
+			assertThat(indexKeys, hasItem(new Document("greeting", 1).append("name", 1)));
+			assertThat(this.queryPlanInspector.checkQueryPlan(), equalTo(false));
+
+			Message<?> received =
+					this.messageCollector
+							.forChannel(this.source.output())
+							.poll(10, TimeUnit.SECONDS);
+			assertThat(received, notNullValue());
+			assertThat((String) received.getPayload(), containsString("hola"));
+		}
+
+	}
+
+	@TestPropertySource(properties = "mongodb.query-plan-check=NONE")
+	public static class QueryPlanCheckTests extends MongodbSourceApplicationTests {
+
+		@Autowired
+		private MongoTemplate mongoTemplate;
+
+		@Autowired
+		private BeanFactory beanFactory;
+
+		@Test
+		public void testFailOnCollectionScan() {
+			MongodbQueryPlanInspector inspector =
+					queryPlanInspector("testing", "{ 'greeting': 'hola' }", MongodbSourceProperties.QueryPlanCheck.FAIL,
+							null);
+			try {
+				inspector.start();
+				fail("IllegalStateException expected");
+			}
+			catch (IllegalStateException ex) {
+				assertThat(ex.getMessage(), containsString("COLLSCAN"));
+			}
+			assertThat(inspector.isRunning(), equalTo(false));
+		}
+
+		@Test
+		public void testWarnOnCollectionScan() {
+			MongodbQueryPlanInspector inspector =
+					queryPlanInspector("testing", "{ 'greeting': 'hola' }", MongodbSourceProperties.QueryPlanCheck.WARN,
+							null);
+			inspector.start();
+			assertThat(inspector.isRunning(), equalTo(true));
+			assertThat(inspector.checkQueryPlan(), equalTo(true));
+			inspector.stop();
+		}
+
+		@Test
+		public void testQueryPlanGauge() {
+			this.mongoTemplate.insert(new Document("greeting", "hola"), "gaugeTesting");
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			AtomicReference<String> query = new AtomicReference<>("{ 'greeting': 'hola' }");
+			MongodbQueryPlanInspector inspector =
+					queryPlanInspector("gaugeTesting", new SupplierExpression<>(query::get),
+							MongodbSourceProperties.QueryPlanCheck.WARN, meterRegistry);
+			inspector.start();
+
+			Gauge gauge = meterRegistry.get(MongodbQueryPlanInspector.QUERY_PLAN_METER).gauge();
+			assertThat(gauge.value(), equalTo(1.0));
+			assertThat(gauge.getId().getTag("collection"), equalTo("gaugeTesting"));
+			assertThat(gauge.getId().getTag("plan"), equalTo("COLLSCAN"));
+			assertThat(gauge.getId().getTag("shape"), containsString("\"greeting\""));
+			assertThat(gauge.getId().getTag("shape"), not(containsString("hola")));
+
+			this.mongoTemplate.indexOps("gaugeTesting").ensureIndex(new Index("greeting", Sort.Direction.ASC));
+			assertThat(inspector.checkQueryPlan(), equalTo(false));
+
+			assertThat(meterRegistry.get(MongodbQueryPlanInspector.QUERY_PLAN_METER).gauges(), hasSize(1));
+			gauge = meterRegistry.get(MongodbQueryPlanInspector.QUERY_PLAN_METER).gauge();
+			assertThat(gauge.value(), equalTo(0.0));
+			assertThat(gauge.getId().getTag("plan"), containsString("IXSCAN"));
+			assertThat(gauge.getId().getTag("plan"), not(containsString("COLLSCAN")));
+
+			query.set("{ 'greeting': { '$bogus': 1 } }");
+			assertThat(inspector.checkQueryPlan(), equalTo(false));
+			gauge = meterRegistry.get(MongodbQueryPlanInspector.QUERY_PLAN_METER).gauge();
+			assertThat(gauge.value(), equalTo(-1.0));
+
+			inspector.stop();
+			assertThat(meterRegistry.find(MongodbQueryPlanInspector.QUERY_PLAN_METER).gauges(), empty());
+		}
+
+		@Test
+		public void testFullReadIsNotChecked() {
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			MongodbQueryPlanInspector inspector =
+					queryPlanInspector("testing", "{ }", MongodbSourceProperties.QueryPlanCheck.FAIL, meterRegistry);
+			inspector.start();
+			assertThat(inspector.isRunning(), equalTo(true));
+			assertThat(inspector.checkQueryPlan(), equalTo(false));
+			assertThat(meterRegistry.find(MongodbQueryPlanInspector.QUERY_PLAN_METER).gauges(), empty());
+			inspector.stop();
+		}
+
+		private MongodbQueryPlanInspector queryPlanInspector(String collection, String query,
+				MongodbSourceProperties.QueryPlanCheck queryPlanCheck, MeterRegistry meterRegistry) {
+
+			return queryPlanInspector(collection, new LiteralExpression(query), queryPlanCheck, meterRegistry);
+		}
+
+		private MongodbQueryPlanInspector queryPlanInspector(String collection, Expression queryExpression,
+				MongodbSourceProperties.QueryPlanCheck queryPlanCheck, MeterRegistry meterRegistry) {
+
+			MongodbSourceProperties properties = new MongodbSourceProperties();
+			properties.setCollection(collection);
+			properties.setQueryPlanCheck(queryPlanCheck);
+			properties.setQueryPlanCheckInterval(Duration.ZERO);
+			MongodbQueryPlanInspector inspector =
+					new MongodbQueryPlanInspector(this.mongoTemplate, queryExpression, properties);
+			inspector.setBeanFactory(this.beanFactory);
+			inspector.setMeterRegistry(meterRegistry);
+			return inspector;
+		}
+
+	}
+
 
 	@SpringBootApplication
 	public static class MongoSourceApplication {